@@ -5,6 +5,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(
         exclude = {
@@ -13,6 +14,7 @@ import org.springframework.cache.annotation.EnableCaching;
         }
 )
 @EnableCaching
+@EnableScheduling
 public class Learn2codeApplication {
     public static void main(String[] args) {
         SpringApplication.run(Learn2codeApplication.class, args);
@@ -0,0 +1,10 @@
+package org.ntg.learn2code.cache;
+
+import java.util.Set;
+
+// Published on the local node after keys were evicted; an empty key set means the whole cache was cleared.
+public record CacheInvalidatedEvent(String cacheName, Set<String> keys) {
+  public boolean isFullClear() {
+    return keys.isEmpty();
+  }
+}
@@ -0,0 +1,146 @@
+package org.ntg.learn2code.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Cross-node cache invalidation over Postgres LISTEN/NOTIFY.
+ *
+ * Write paths call {@link #invalidate}/{@link #invalidateAll}. Inside a transaction the keys are
+ * collected and sent as a single NOTIFY just before commit; Postgres only delivers it if the
+ * transaction commits. The local node evicts right after commit, the other nodes when
+ * {@link CacheInvalidationListener} receives the message.
+ *
+ * Message payload: comma separated "cache:key" entries, "cache:*" clears the whole cache. The same
+ * message can be sent by hand after editing data directly in the database, e.g.
+ * {@code NOTIFY l2c_cache_invalidation, 'courses:*'}; the caches' TTL covers anything that is missed.
+ */
+@Component
+public class CacheInvalidationBus {
+  static final String ALL = "*";
+  // NOTIFY payloads must stay below 8000 bytes
+  private static final int MAX_PAYLOAD_BYTES = 7900;
+
+  private final JdbcTemplate jdbc;
+  private final CacheManager cacheManager;
+  private final ApplicationEventPublisher events;
+  private final String channel;
+
+  public CacheInvalidationBus(JdbcTemplate jdbc, CacheManager cacheManager, ApplicationEventPublisher events,
+                              @Value("${learn2code.cache.invalidation.channel:l2c_cache_invalidation}") String channel) {
+    this.jdbc = jdbc;
+    this.cacheManager = cacheManager;
+    this.events = events;
+    this.channel = channel;
+  }
+
+  public String channel() {
+    return channel;
+  }
+
+  public void invalidate(String cacheName, Object key) {
+    submit(cacheName, String.valueOf(key));
+  }
+
+  public void invalidateAll(String cacheName) {
+    submit(cacheName, ALL);
+  }
+
+  private void submit(String cacheName, String key) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      Map<String, Set<String>> batch = Map.of(cacheName, Set.of(key));
+      notifyPeers(batch);
+      evictLocal(batch);
+      return;
+    }
+    Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+    if (pending == null) {
+      pending = new Pending();
+      TransactionSynchronizationManager.bindResource(this, pending);
+      TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+    pending.batch.computeIfAbsent(cacheName, k -> new HashSet<>()).add(key);
+  }
+
+  private void notifyPeers(Map<String, Set<String>> batch) {
+    jdbc.queryForObject("select pg_notify(?, ?)", Object.class, channel, encode(batch));
+  }
+
+  /** Evicts the given keys from the local caches and tells local listeners about it. */
+  void evictLocal(Map<String, Set<String>> batch) {
+    batch.forEach((cacheName, keys) -> {
+      Cache cache = cacheManager.getCache(cacheName);
+      if (cache == null) return;
+      if (keys.contains(ALL)) {
+        cache.clear();
+        events.publishEvent(new CacheInvalidatedEvent(cacheName, Set.of()));
+      } else {
+        keys.forEach(cache::evict);
+        events.publishEvent(new CacheInvalidatedEvent(cacheName, Set.copyOf(keys)));
+      }
+    });
+  }
+
+  /** Full resync: clears every local cache, used when messages may have been missed. */
+  void evictAllLocal() {
+    Map<String, Set<String>> batch = new HashMap<>();
+    for (String name : cacheManager.getCacheNames()) {
+      batch.put(name, Set.of(ALL));
+    }
+    evictLocal(batch);
+  }
+
+  static String encode(Map<String, Set<String>> batch) {
+    StringBuilder sb = new StringBuilder();
+    batch.forEach((cacheName, keys) -> {
+      for (String key : keys.contains(ALL) ? Set.of(ALL) : keys) {
+        if (!sb.isEmpty()) sb.append(',');
+        sb.append(cacheName).append(':').append(key);
+      }
+    });
+    if (sb.toString().getBytes(StandardCharsets.UTF_8).length <= MAX_PAYLOAD_BYTES) {
+      return sb.toString();
+    }
+    // too many keys for one message: fall back to clearing the affected caches
+    StringJoiner all = new StringJoiner(",");
+    batch.keySet().forEach(cacheName -> all.add(cacheName + ":" + ALL));
+    return all.toString();
+  }
+
+  static void decodeInto(String payload, Map<String, Set<String>> into) {
+    if (payload == null || payload.isEmpty()) return;
+    for (String entry : payload.split(",")) {
+      int sep = entry.indexOf(':');
+      if (sep <= 0) continue;
+      into.computeIfAbsent(entry.substring(0, sep), k -> new HashSet<>()).add(entry.substring(sep + 1));
+    }
+  }
+
+  private class Pending implements TransactionSynchronization {
+    final Map<String, Set<String>> batch = new HashMap<>();
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      notifyPeers(batch);
+    }
+
+    @Override
+    public void afterCommit() {
+      evictLocal(batch);
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationBus.this);
+    }
+  }
+}
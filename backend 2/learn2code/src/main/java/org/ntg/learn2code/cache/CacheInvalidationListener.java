@@ -0,0 +1,124 @@
+package org.ntg.learn2code.cache;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Listens on a dedicated (non-pooled) connection for messages from {@link CacheInvalidationBus}.
+ * Bursts are coalesced: notifications are collected until the channel has been quiet for the
+ * coalesce window (or it has been open for 10 windows), then evicted in one go. After a
+ * (re)connect every local cache is cleared, since messages sent while disconnected are lost.
+ */
+@Component
+public class CacheInvalidationListener implements SmartLifecycle {
+  private static final Logger log = LoggerFactory.getLogger(CacheInvalidationListener.class);
+
+  private final CacheInvalidationBus bus;
+  private final DataSourceProperties dataSource;
+  private final boolean enabled;
+  private final int coalesceMillis;
+  private final int maxKeysPerCache;
+
+  private volatile boolean running;
+  private Thread worker;
+
+  public CacheInvalidationListener(CacheInvalidationBus bus, DataSourceProperties dataSource,
+                                   @Value("${learn2code.cache.invalidation.enabled:true}") boolean enabled,
+                                   @Value("${learn2code.cache.invalidation.coalesce-ms:50}") int coalesceMillis,
+                                   @Value("${learn2code.cache.invalidation.max-keys-per-cache:500}") int maxKeysPerCache) {
+    if (!bus.channel().matches("[a-z_][a-z0-9_]*")) {
+      throw new IllegalArgumentException("Invalid invalidation channel name: " + bus.channel());
+    }
+    this.bus = bus;
+    this.dataSource = dataSource;
+    this.enabled = enabled;
+    this.coalesceMillis = coalesceMillis;
+    this.maxKeysPerCache = maxKeysPerCache;
+  }
+
+  @Override
+  public void start() {
+    if (!enabled) return;
+    running = true;
+    worker = new Thread(this::run, "cache-invalidation-listener");
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (worker != null) {
+      worker.interrupt();
+      try {
+        worker.join(2000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void run() {
+    long backoff = 500;
+    while (running) {
+      try (Connection conn = DriverManager.getConnection(
+              dataSource.determineUrl(), dataSource.determineUsername(), dataSource.determinePassword())) {
+        try (Statement st = conn.createStatement()) {
+          st.execute("LISTEN " + bus.channel());
+        }
+        log.info("Listening for cache invalidations on channel {}", bus.channel());
+        bus.evictAllLocal();
+        backoff = 500;
+        listen(conn.unwrap(PGConnection.class));
+      } catch (SQLException e) {
+        if (!running) break;
+        log.warn("Cache invalidation listener disconnected, retrying in {} ms: {}", backoff, e.getMessage());
+        try {
+          Thread.sleep(backoff);
+        } catch (InterruptedException ie) {
+          break;
+        }
+        backoff = Math.min(backoff * 2, 30_000);
+      }
+    }
+  }
+
+  private void listen(PGConnection pg) throws SQLException {
+    Map<String, Set<String>> pending = new HashMap<>();
+    long firstPendingAt = 0;
+    while (running) {
+      PGNotification[] received = pg.getNotifications(pending.isEmpty() ? 1000 : coalesceMillis);
+      boolean quiet = received == null || received.length == 0;
+      if (!quiet) {
+        if (pending.isEmpty()) firstPendingAt = System.currentTimeMillis();
+        for (PGNotification n : received) {
+          CacheInvalidationBus.decodeInto(n.getParameter(), pending);
+        }
+      }
+      if (!pending.isEmpty() && (quiet || System.currentTimeMillis() - firstPendingAt >= 10L * coalesceMillis)) {
+        pending.replaceAll((cacheName, keys) -> keys.size() > maxKeysPerCache ? Set.of(CacheInvalidationBus.ALL) : keys);
+        bus.evictLocal(pending);
+        pending = new HashMap<>();
+      }
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package org.ntg.learn2code.cache;
+
+// Names of the in-process caches; keys are always strings so that invalidation
+// messages coming off the bus can evict them without knowing the original type.
+public final class CacheNames {
+  // active storefront catalog, single key "active"
+  public static final String COURSES = "courses";
+
+  // purchased courses per user with the student each was bought for, keyed by user id
+  public static final String ENTITLEMENTS = "entitlements";
+
+  private CacheNames() {}
+}
@@ -0,0 +1,13 @@
+package org.ntg.learn2code.dto;
+
+import java.math.BigDecimal;
+
+public record MyCourseDto(
+        Long id,
+        String title,
+        String description,
+        BigDecimal price,
+        String imageUrl,
+        int progressPercent,
+        boolean completed
+) {}
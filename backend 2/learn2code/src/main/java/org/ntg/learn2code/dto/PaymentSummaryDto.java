@@ -0,0 +1,37 @@
+package org.ntg.learn2code.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import org.ntg.learn2code.model.Payment;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// Payment as shown to the paying user: no User/StudentProfile entities, so nothing of the accounts leaks
+public record PaymentSummaryDto(
+        Long id,
+        Long studentId,
+        BigDecimal amount,
+        String currency,
+        BigDecimal taxAmount,
+        BigDecimal totalAmount,
+        String method,
+        String provider,
+        String status,
+        String receiptNumber,
+        String cardBrand,
+        String cardLast4,
+        String billingName,
+        String billingEmail,
+        @JsonRawValue String billingAddress,
+        Instant createdAt
+) {
+    public static PaymentSummaryDto of(Payment p) {
+        return new PaymentSummaryDto(
+                p.getId(),
+                p.getStudent() == null ? null : p.getStudent().getId(),
+                p.getAmount(), p.getCurrency(), p.getTaxAmount(), p.getTotalAmount(),
+                p.getMethod(), p.getProvider(), p.getStatus(), p.getReceiptNumber(),
+                p.getCardBrand(), p.getCardLast4(), p.getBillingName(), p.getBillingEmail(),
+                p.getBillingAddress(), p.getCreatedAt());
+    }
+}
@@ -0,0 +1,15 @@
+package org.ntg.learn2code.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+import java.io.IOException;
+
+// Reads any JSON value into its compact JSON text, for fields stored as raw jsonb (see Payment.billingAddress)
+public class RawJsonDeserializer extends JsonDeserializer<String> {
+  @Override
+  public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+    return ctxt.readTree(p).toString();
+  }
+}
@@ -0,0 +1,12 @@
+package org.ntg.learn2code.dto;
+
+import java.math.BigDecimal;
+
+// A purchased course together with the student it was bought for (studentId null = parent's own)
+public record StudentCourseDto(
+        Long studentId,
+        Long id,
+        String title,
+        String description,
+        BigDecimal price
+) {}
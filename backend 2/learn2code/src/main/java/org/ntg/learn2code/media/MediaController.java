@@ -0,0 +1,145 @@
+package org.ntg.learn2code.media;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.ntg.learn2code.repository.UserRepository;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+@RestController
+@CrossOrigin(origins = {"http://localhost:3000"})
+public class MediaController {
+  // Tomcat request attributes for handing a file region to the connector (sendfile)
+  private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+  private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+  private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+  private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+  private static final String CACHE_FOREVER = "public, max-age=31536000, immutable";
+
+  private final MediaStorage storage;
+  private final UserRepository users;
+
+  public MediaController(MediaStorage storage, UserRepository users) {
+    this.storage = storage;
+    this.users = users;
+  }
+
+  // POST /api/media (multipart, field "file"); set the returned url as avatarUrl / imageUrl
+  @PostMapping("/api/media")
+  public ResponseEntity<?> upload(@RequestHeader("X-User-Id") Long userId,
+                                  @RequestParam("file") MultipartFile file) throws IOException {
+    if (userId == null || !users.existsById(userId)) {
+      return ResponseEntity.badRequest().body(Map.of("message", "Invalid user"));
+    }
+    if (file == null || file.isEmpty()) {
+      return ResponseEntity.badRequest().body(Map.of("message", "No file provided"));
+    }
+    try {
+      var stored = storage.store(file.getBytes());
+      return ResponseEntity.created(URI.create(stored.url())).body(stored);
+    } catch (IllegalArgumentException ex) {
+      return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+    } catch (IllegalStateException ex) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+              .header(HttpHeaders.RETRY_AFTER, "2")
+              .body(Map.of("message", ex.getMessage()));
+    }
+  }
+
+  // GET /media/{name}: immutable, range-capable; body goes out via sendfile where the connector supports it
+  @GetMapping("/media/{name:.+}")
+  public void serve(@PathVariable String name, HttpServletRequest req, HttpServletResponse res) throws IOException {
+    Path file = storage.resolve(name);
+    if (file == null) {
+      res.sendError(HttpStatus.NOT_FOUND.value());
+      return;
+    }
+    long length = Files.size(file);
+    String etag = "\"" + name + "\"";
+    res.setHeader(HttpHeaders.ETAG, etag);
+    res.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_FOREVER);
+    res.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+    res.setContentType(MediaStorage.contentType(name));
+
+    String ifNoneMatch = req.getHeader(HttpHeaders.IF_NONE_MATCH);
+    if (ifNoneMatch != null && (ifNoneMatch.equals("*") || ifNoneMatch.contains(etag))) {
+      res.setStatus(HttpStatus.NOT_MODIFIED.value());
+      return;
+    }
+
+    long start = 0, end = length - 1;
+    String range = req.getHeader(HttpHeaders.RANGE);
+    if (range != null) {
+      long[] r = parseRange(range, length);
+      if (r == null) {
+        res.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+        res.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+        return;
+      }
+      if (r.length == 2) {
+        start = r[0];
+        end = r[1];
+        res.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        res.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+      }
+    }
+    long count = end - start + 1;
+    res.setContentLengthLong(count);
+    if ("HEAD".equals(req.getMethod()) || count == 0) return;
+
+    if (Boolean.TRUE.equals(req.getAttribute(SENDFILE_SUPPORT))) {
+      req.setAttribute(SENDFILE_FILENAME, file.toString());
+      req.setAttribute(SENDFILE_START, start);
+      req.setAttribute(SENDFILE_END, end + 1);
+      return;
+    }
+    try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+      WritableByteChannel out = Channels.newChannel(res.getOutputStream());
+      long pos = start;
+      while (pos <= end) {
+        pos += in.transferTo(pos, end + 1 - pos, out);
+      }
+    }
+  }
+
+  /**
+   * Parses a single "bytes=" range. Returns {start, end} (inclusive), an empty array when the
+   * header should be ignored (other units, multiple ranges) and null when unsatisfiable.
+   */
+  static long[] parseRange(String header, long length) {
+    if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) return new long[0];
+    String spec = header.substring(6).trim();
+    int dash = spec.indexOf('-');
+    if (dash < 0) return new long[0];
+    try {
+      long start, end;
+      if (dash == 0) {
+        long suffix = Long.parseLong(spec.substring(1));
+        if (suffix <= 0) return null;
+        start = Math.max(0, length - suffix);
+        end = length - 1;
+      } else {
+        start = Long.parseLong(spec.substring(0, dash));
+        end = dash == spec.length() - 1 ? length - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), length - 1);
+      }
+      if (start >= length || start > end) return null;
+      return new long[] { start, end };
+    } catch (NumberFormatException ex) {
+      return new long[0];
+    }
+  }
+}
@@ -0,0 +1,199 @@
+package org.ntg.learn2code.media;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed image store on local disk.
+ *
+ * Files are named after the SHA-256 of the original upload ({hash}.{ext}); thumbnails are
+ * generated once at upload time as {hash}-{width}.{ext}. Since a name never changes content,
+ * the files can be served with immutable cache headers. Files live in a two-character shard
+ * directory (root/ab/abcd...png) to keep directories small.
+ */
+@Component
+public class MediaStorage {
+  private static final Pattern NAME = Pattern.compile("[0-9a-f]{64}(-[0-9]{1,4})?\\.(png|jpg|gif)");
+  // a decoded image costs 4 bytes per pixel: 16 MP is ~64 MB of heap per decode
+  private static final long MAX_PIXELS = 16_000_000L;
+
+  public record StoredMedia(String id, String url, Map<Integer, String> thumbnails) {}
+
+  private final Path root;
+  private final List<Integer> thumbnailWidths;
+  // caps the heap held by decoded images across concurrent uploads
+  private final Semaphore decodePermits;
+
+  public MediaStorage(@Value("${learn2code.media.root:./media}") String root,
+                      @Value("${learn2code.media.thumbnail-widths:64,256,512}") List<Integer> thumbnailWidths,
+                      @Value("${learn2code.media.max-concurrent-decodes:2}") int maxConcurrentDecodes)
+          throws IOException {
+    this.root = Paths.get(root).toAbsolutePath().normalize();
+    this.thumbnailWidths = List.copyOf(thumbnailWidths);
+    this.decodePermits = new Semaphore(maxConcurrentDecodes);
+    Files.createDirectories(this.root);
+  }
+
+  /**
+   * Stores an uploaded image and its thumbnails; uploading the same bytes twice is a no-op.
+   *
+   * @throws IllegalArgumentException if the upload is not a usable image (API error message)
+   * @throws IllegalStateException with "media_busy" if no decode slot frees up in time
+   */
+  public StoredMedia store(byte[] data) throws IOException {
+    String ext = detectExtension(data);
+    if (ext == null) {
+      throw new IllegalArgumentException("unsupported_image_type");
+    }
+    String hash = sha256(data);
+    Path original = pathFor(hash + "." + ext);
+    // thumbnails keep the original format, except GIF which is re-encoded as PNG
+    String thumbExt = ext.equals("gif") ? "png" : ext;
+
+    Map<Integer, String> thumbs = new LinkedHashMap<>();
+    Map<Integer, Path> missing = new LinkedHashMap<>();
+    for (int width : thumbnailWidths) {
+      String name = hash + "-" + width + "." + thumbExt;
+      Path thumb = pathFor(name);
+      if (!Files.exists(thumb)) missing.put(width, thumb);
+      thumbs.put(width, "/media/" + name);
+    }
+
+    if (!Files.exists(original) || !missing.isEmpty()) {
+      acquireDecodePermit();
+      try {
+        BufferedImage image = decode(data);
+        if (!Files.exists(original)) writeAtomically(original, data);
+        for (var e : missing.entrySet()) {
+          writeAtomically(e.getValue(), encode(scaleToWidth(image, e.getKey()), thumbExt));
+        }
+      } finally {
+        decodePermits.release();
+      }
+    }
+    return new StoredMedia(hash, "/media/" + hash + "." + ext, thumbs);
+  }
+
+  private void acquireDecodePermit() {
+    try {
+      if (decodePermits.tryAcquire(5, TimeUnit.SECONDS)) return;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    throw new IllegalStateException("media_busy");
+  }
+
+  /** Returns the file for a public media name, or null if the name is invalid or unknown. */
+  public Path resolve(String name) {
+    if (name == null || !NAME.matcher(name).matches()) return null;
+    Path p = pathFor(name);
+    return Files.isRegularFile(p) ? p : null;
+  }
+
+  public static String contentType(String name) {
+    if (name.endsWith(".png")) return "image/png";
+    if (name.endsWith(".jpg")) return "image/jpeg";
+    return "image/gif";
+  }
+
+  private Path pathFor(String name) {
+    return root.resolve(name.substring(0, 2)).resolve(name);
+  }
+
+  private static String detectExtension(byte[] d) {
+    if (d.length > 8 && (d[0] & 0xFF) == 0x89 && d[1] == 'P' && d[2] == 'N' && d[3] == 'G') return "png";
+    if (d.length > 3 && (d[0] & 0xFF) == 0xFF && (d[1] & 0xFF) == 0xD8 && (d[2] & 0xFF) == 0xFF) return "jpg";
+    if (d.length > 6 && d[0] == 'G' && d[1] == 'I' && d[2] == 'F' && d[3] == '8') return "gif";
+    return null;
+  }
+
+  // Reads the header first so a tiny file claiming huge dimensions is rejected before decoding.
+  private static BufferedImage decode(byte[] data) throws IOException {
+    try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+      if (!readers.hasNext()) throw new IllegalArgumentException("unsupported_image_type");
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(in, true, true);
+        if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+          throw new IllegalArgumentException("image_too_large");
+        }
+        return reader.read(0);
+      } catch (IOException | RuntimeException ex) {
+        // valid magic bytes but a corrupt body is the client's fault, not ours
+        if (ex instanceof IllegalArgumentException iae) throw iae;
+        throw new IllegalArgumentException("invalid_image", ex);
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  private static BufferedImage scaleToWidth(BufferedImage src, int width) {
+    if (src.getWidth() <= width) return src;
+    int height = Math.max(1, (int) Math.round((double) src.getHeight() * width / src.getWidth()));
+    boolean alpha = src.getColorModel().hasAlpha();
+    BufferedImage out = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = out.createGraphics();
+    try {
+      g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+      g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+      g.drawImage(src, 0, 0, width, height, null);
+    } finally {
+      g.dispose();
+    }
+    return out;
+  }
+
+  private static byte[] encode(BufferedImage image, String ext) throws IOException {
+    BufferedImage img = image;
+    if (ext.equals("jpg") && image.getColorModel().hasAlpha()) {
+      // JPEG has no alpha channel
+      img = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+      Graphics2D g = img.createGraphics();
+      g.drawImage(image, 0, 0, null);
+      g.dispose();
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    if (!ImageIO.write(img, ext.equals("jpg") ? "jpeg" : ext, out)) {
+      throw new IOException("No ImageIO writer for " + ext);
+    }
+    return out.toByteArray();
+  }
+
+  private static void writeAtomically(Path target, byte[] data) throws IOException {
+    Files.createDirectories(target.getParent());
+    Path tmp = Files.createTempFile(target.getParent(), ".upload", ".tmp");
+    try {
+      Files.write(tmp, data);
+      Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  private static String sha256(byte[] data) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -1,11 +1,11 @@
 // src/main/java/org/ntg/learn2code/model/Payment.java
 package org.ntg.learn2code.model;
 
+import com.fasterxml.jackson.annotation.JsonRawValue;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.util.Map;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
@@ -39,8 +39,10 @@ public class Payment {
   private String billingName;
   private String billingEmail;
 
+  // jsonb kept as its raw text: read from the driver as-is and written verbatim into responses
   @JdbcTypeCode(SqlTypes.JSON) @Column(columnDefinition = "jsonb")
-  private Map<String,Object> billingAddress;
+  @JsonRawValue
+  private String billingAddress;
 
   @Column(nullable = false)
   private Instant createdAt = Instant.now();
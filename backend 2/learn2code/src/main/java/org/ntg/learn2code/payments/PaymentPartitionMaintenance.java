@@ -0,0 +1,174 @@
+package org.ntg.learn2code.payments;
+
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the monthly partitions of payments (see V5__partition_payments.sql) in shape:
+ * creates partitions ahead of time and archives months older than the retention window
+ * (detach, COPY to a gzipped CSV in the archive directory, drop).
+ *
+ * Archiving runs daily from the cron only; at startup a background thread just makes sure the
+ * future partitions exist, so neither work sits on the startup path. A Postgres advisory lock makes
+ * sure only one node works at a time. Archiving is resumable: a partition that was detached but not
+ * yet exported is picked up again on the next run.
+ */
+@Component
+public class PaymentPartitionMaintenance {
+  private static final Logger log = LoggerFactory.getLogger(PaymentPartitionMaintenance.class);
+  private static final Pattern PARTITION = Pattern.compile("payments_(\\d{4})_(\\d{2})");
+  private static final long LOCK_KEY = 0x4c32435041594dL; // "L2CPAYM"
+
+  private final DataSource dataSource;
+  private final int retentionMonths;
+  private final int monthsAhead;
+  private final boolean archiveEnabled;
+  private final Path archiveDir;
+
+  public PaymentPartitionMaintenance(DataSource dataSource,
+                                     @Value("${learn2code.payments.retention-months:24}") int retentionMonths,
+                                     @Value("${learn2code.payments.partitions-ahead:3}") int monthsAhead,
+                                     @Value("${learn2code.payments.archive-enabled:true}") boolean archiveEnabled,
+                                     @Value("${learn2code.payments.archive-dir:./archive/payments}") String archiveDir) {
+    this.dataSource = dataSource;
+    this.retentionMonths = retentionMonths;
+    this.monthsAhead = monthsAhead;
+    this.archiveEnabled = archiveEnabled;
+    this.archiveDir = Paths.get(archiveDir).toAbsolutePath().normalize();
+  }
+
+  /** Start of the oldest month still kept in the payments table; history queries default to it. */
+  public Instant hotWindowStart() {
+    return oldestRetainedMonth().atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void afterStartup() {
+    Thread t = new Thread(() -> run(false), "payment-partitions");
+    t.setDaemon(true);
+    t.start();
+  }
+
+  @Scheduled(cron = "${learn2code.payments.partition-cron:0 15 3 * * *}", zone = "UTC")
+  public void maintain() {
+    run(archiveEnabled);
+  }
+
+  private void run(boolean archive) {
+    try (Connection conn = dataSource.getConnection()) {
+      conn.setAutoCommit(true);
+      if (!tryLock(conn)) {
+        log.debug("Payment partition maintenance is running on another node");
+        return;
+      }
+      try {
+        ensureFuturePartitions(conn);
+        if (archive) archiveExpired(conn);
+      } finally {
+        unlock(conn);
+      }
+    } catch (SQLException | IOException e) {
+      log.error("Payment partition maintenance failed", e);
+    }
+  }
+
+  private void ensureFuturePartitions(Connection conn) throws SQLException {
+    try (PreparedStatement ps = conn.prepareStatement("select payments_ensure_partitions(now(), ?)")) {
+      ps.setInt(1, monthsAhead);
+      try (ResultSet rs = ps.executeQuery()) {
+        if (rs.next() && rs.getInt(1) > 0) {
+          log.info("Created {} payment partition(s)", rs.getInt(1));
+        }
+      }
+    }
+  }
+
+  private void archiveExpired(Connection conn) throws SQLException, IOException {
+    YearMonth oldestRetained = oldestRetainedMonth();
+    // attached partitions and ones left detached by an interrupted earlier run
+    List<String> attached = new ArrayList<>();
+    List<String> expired = new ArrayList<>();
+    try (Statement st = conn.createStatement();
+         ResultSet rs = st.executeQuery(
+                 "select relname, relispartition from pg_class " +
+                 "where relkind = 'r' and relname ~ '^payments_[0-9]{4}_[0-9]{2}$' " +
+                 "and relnamespace = current_schema()::regnamespace")) {
+      while (rs.next()) {
+        String name = rs.getString(1);
+        Matcher m = PARTITION.matcher(name);
+        if (!m.matches()) continue;
+        YearMonth month = YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)));
+        if (month.isBefore(oldestRetained)) {
+          expired.add(name);
+          if (rs.getBoolean(2)) attached.add(name);
+        }
+      }
+    }
+    Files.createDirectories(archiveDir);
+    for (String part : expired) {
+      try (Statement st = conn.createStatement()) {
+        if (attached.contains(part)) {
+          st.execute("alter table payments detach partition " + part);
+        }
+        exportCsv(conn, part);
+        // user_courses.payment_id has no FK any more (V5), so do what its ON DELETE SET NULL used to do
+        st.executeUpdate("update user_courses set payment_id = null where payment_id in (select id from " + part + ")");
+        st.execute("drop table " + part);
+      }
+      log.info("Archived payment partition {} to {}", part, archiveDir);
+    }
+  }
+
+  private void exportCsv(Connection conn, String part) throws SQLException, IOException {
+    Path target = archiveDir.resolve(part + ".csv.gz");
+    Path tmp = archiveDir.resolve(part + ".csv.gz.tmp");
+    try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+      conn.unwrap(PGConnection.class).getCopyAPI()
+              .copyOut("copy " + part + " to stdout with (format csv, header)", out);
+    }
+    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  private YearMonth oldestRetainedMonth() {
+    return YearMonth.now(ZoneOffset.UTC).minusMonths(retentionMonths);
+  }
+
+  private static boolean tryLock(Connection conn) throws SQLException {
+    try (PreparedStatement ps = conn.prepareStatement("select pg_try_advisory_lock(?)")) {
+      ps.setLong(1, LOCK_KEY);
+      try (ResultSet rs = ps.executeQuery()) {
+        return rs.next() && rs.getBoolean(1);
+      }
+    }
+  }
+
+  private static void unlock(Connection conn) throws SQLException {
+    try (PreparedStatement ps = conn.prepareStatement("select pg_advisory_unlock(?)")) {
+      ps.setLong(1, LOCK_KEY);
+      ps.execute();
+    }
+  }
+}
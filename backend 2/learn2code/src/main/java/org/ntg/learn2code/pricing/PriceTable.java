@@ -0,0 +1,64 @@
+package org.ntg.learn2code.pricing;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of everything needed to price a cart, in minor units (cents).
+ * Course prices sit in two parallel sorted arrays so a lookup is a binary search without boxing.
+ * A new table with a higher version replaces the old one whenever the catalog changes.
+ */
+public final class PriceTable {
+  private final long version;
+  private final String currency;
+  private final long[] courseIds;
+  private final long[] priceMinor;
+  private final Map<String, Integer> taxRateBps;
+  // bundle tiers sorted by minimum course count
+  private final int[] bundleMinCourses;
+  private final int[] bundleBps;
+  private final Map<String, Integer> promoCodeBps;
+
+  PriceTable(long version, String currency, long[] courseIds, long[] priceMinor,
+             Map<String, Integer> taxRateBps, int[] bundleMinCourses, int[] bundleBps,
+             Map<String, Integer> promoCodeBps) {
+    this.version = version;
+    this.currency = currency;
+    this.courseIds = courseIds;
+    this.priceMinor = priceMinor;
+    this.taxRateBps = Map.copyOf(taxRateBps);
+    this.bundleMinCourses = bundleMinCourses;
+    this.bundleBps = bundleBps;
+    this.promoCodeBps = Map.copyOf(promoCodeBps);
+  }
+
+  public long version() { return version; }
+  public String currency() { return currency; }
+  public int courseCount() { return courseIds.length; }
+
+  /** Price of an active course in minor units, or -1 if it is unknown or inactive. */
+  public long priceOf(long courseId) {
+    int i = Arrays.binarySearch(courseIds, courseId);
+    return i < 0 ? -1 : priceMinor[i];
+  }
+
+  /** Tax rate for the currency, or -1 if the currency is not sold in. */
+  int taxRateBps(String currency) {
+    Integer bps = taxRateBps.get(currency);
+    return bps == null ? -1 : bps;
+  }
+
+  int bundleBps(int distinctCourses) {
+    int bps = 0;
+    for (int i = 0; i < bundleMinCourses.length && bundleMinCourses[i] <= distinctCourses; i++) {
+      bps = bundleBps[i];
+    }
+    return bps;
+  }
+
+  /** Discount for a promo code, or -1 if the code is unknown. */
+  int promoBps(String code) {
+    Integer bps = promoCodeBps.get(code);
+    return bps == null ? -1 : bps;
+  }
+}
@@ -0,0 +1,166 @@
+package org.ntg.learn2code.pricing;
+
+import org.ntg.learn2code.model.Course;
+import org.ntg.learn2code.repository.CourseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Server-side cart pricing. Quotes are computed from an in-memory {@link PriceTable} in long
+ * minor units, so pricing a cart needs no DB access and no BigDecimal arithmetic; BigDecimal is
+ * only used when the table is built from Course.price and when a quote is persisted.
+ *
+ * The table is built from the same cached catalog the storefront serves (CourseRepository
+ * findByIsActiveTrue) and rebuilt whenever that cache hands out a different list, i.e. after an
+ * invalidation or TTL expiry. Checkout therefore never charges a price older than the one shown.
+ */
+@Component
+public class PricingEngine {
+  private static final Logger log = LoggerFactory.getLogger(PricingEngine.class);
+  private static final long BPS = 10_000;
+
+  public record Line(long courseId, long unitMinor) {}
+
+  public record Quote(long priceTableVersion, String currency, List<Line> lines,
+                      long subtotalMinor, long discountMinor, long taxMinor, long totalMinor) {}
+
+  private final CourseRepository courses;
+  private final PricingProperties props;
+  // the catalog list the table was built from; compared by identity
+  private record Built(List<Course> source, PriceTable table) {}
+
+  private final AtomicReference<Built> built = new AtomicReference<>();
+  private long nextVersion = 1;
+
+  public PricingEngine(CourseRepository courses, PricingProperties props) {
+    this.courses = courses;
+    this.props = props;
+  }
+
+  /**
+   * Prices a cart. Duplicate course ids are counted once.
+   *
+   * @throws IllegalArgumentException with the API error message for unknown courses, currencies or promo codes
+   */
+  public Quote quote(List<Long> courseIds, String currency, String promoCode) {
+    PriceTable t = current();
+    String cur = currency == null || currency.isBlank() ? t.currency() : currency.trim().toUpperCase(Locale.ROOT);
+    int taxBps = t.taxRateBps(cur);
+    if (!cur.equals(t.currency()) || taxBps < 0) {
+      throw new IllegalArgumentException("unsupported_currency");
+    }
+
+    long[] ids = distinctIds(courseIds);
+    if (ids.length == 0) {
+      throw new IllegalArgumentException("No courses provided");
+    }
+    Line[] lines = new Line[ids.length];
+    long subtotal = 0;
+    for (int i = 0; i < ids.length; i++) {
+      long unit = t.priceOf(ids[i]);
+      if (unit < 0) {
+        throw new IllegalArgumentException("unknown_course:" + ids[i]);
+      }
+      lines[i] = new Line(ids[i], unit);
+      subtotal = Math.addExact(subtotal, unit);
+    }
+
+    int discountBps = t.bundleBps(ids.length);
+    if (promoCode != null && !promoCode.isBlank()) {
+      int promo = t.promoBps(promoCode.trim().toUpperCase(Locale.ROOT));
+      if (promo < 0) {
+        throw new IllegalArgumentException("invalid_promo_code");
+      }
+      discountBps += promo;
+    }
+    long discount = percentOf(subtotal, (int) Math.min(discountBps, BPS));
+    long net = subtotal - discount;
+    long tax = percentOf(net, taxBps);
+    return new Quote(t.version(), cur, List.of(lines), subtotal, discount, tax, net + tax);
+  }
+
+  /** The table for the catalog currently in the courses cache; a cache hit costs no DB access. */
+  public PriceTable current() {
+    List<Course> catalog = courses.findByIsActiveTrue();
+    Built b = built.get();
+    return b != null && b.source() == catalog ? b.table() : rebuild(catalog);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    current();
+  }
+
+  private synchronized PriceTable rebuild(List<Course> catalog) {
+    Built b = built.get();
+    if (b != null && b.source() == catalog) return b.table();
+    List<Course> active = catalog.stream()
+            .filter(Course::isActive)
+            .sorted(Comparator.comparing(Course::getId))
+            .toList();
+    long[] ids = new long[active.size()];
+    long[] prices = new long[active.size()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = active.get(i).getId();
+      prices[i] = toMinor(active.get(i).getPrice());
+    }
+
+    TreeMap<Integer, Integer> tiers = new TreeMap<>(props.getBundleDiscountBps());
+    int[] tierMin = new int[tiers.size()];
+    int[] tierBps = new int[tiers.size()];
+    int i = 0;
+    for (var e : tiers.entrySet()) {
+      tierMin[i] = e.getKey();
+      tierBps[i++] = e.getValue();
+    }
+
+    String currency = props.getCatalogCurrency().toUpperCase(Locale.ROOT);
+    PriceTable t = new PriceTable(nextVersion++, currency, ids, prices,
+            upperCaseKeys(props.getTaxRateBps()), tierMin, tierBps, upperCaseKeys(props.getPromoCodeBps()));
+    built.set(new Built(catalog, t));
+    log.info("Price table v{} built with {} active courses", t.version(), t.courseCount());
+    return t;
+  }
+
+  public static long toMinor(BigDecimal amount) {
+    return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+  }
+
+  public static BigDecimal toMajor(long minor) {
+    return BigDecimal.valueOf(minor, 2);
+  }
+
+  // rounds half up
+  private static long percentOf(long amount, int bps) {
+    return (Math.multiplyExact(amount, bps) + BPS / 2) / BPS;
+  }
+
+  private static long[] distinctIds(List<Long> courseIds) {
+    if (courseIds == null) return new long[0];
+    long[] ids = new long[courseIds.size()];
+    int n = 0;
+    for (Long id : courseIds) {
+      if (id != null) ids[n++] = id;
+    }
+    Arrays.sort(ids, 0, n);
+    int unique = 0;
+    for (int i = 0; i < n; i++) {
+      if (unique == 0 || ids[unique - 1] != ids[i]) ids[unique++] = ids[i];
+    }
+    return Arrays.copyOf(ids, unique);
+  }
+
+  private static Map<String, Integer> upperCaseKeys(Map<String, Integer> in) {
+    Map<String, Integer> out = new HashMap<>();
+    in.forEach((k, v) -> out.put(k.toUpperCase(Locale.ROOT), v));
+    return out;
+  }
+}
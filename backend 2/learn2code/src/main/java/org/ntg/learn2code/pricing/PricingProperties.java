@@ -0,0 +1,27 @@
+package org.ntg.learn2code.pricing;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// learn2code.pricing.* ; all rates in basis points (1/100 of a percent)
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "learn2code.pricing")
+public class PricingProperties {
+  // currency of Course.price
+  private String catalogCurrency = "USD";
+
+  // tax per currency, e.g. tax-rate-bps[USD]=0
+  private Map<String, Integer> taxRateBps = new LinkedHashMap<>();
+
+  // bundle discount by number of distinct courses in the cart, e.g. bundle-discount-bps[3]=1500
+  private Map<Integer, Integer> bundleDiscountBps = new LinkedHashMap<>();
+
+  // promo code discounts, e.g. promo-code-bps[WELCOME10]=1000
+  private Map<String, Integer> promoCodeBps = new LinkedHashMap<>();
+}
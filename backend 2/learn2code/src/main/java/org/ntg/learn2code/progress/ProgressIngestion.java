@@ -0,0 +1,188 @@
+package org.ntg.learn2code.progress;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind ingestion of lesson player progress events.
+ *
+ * Events are coalesced in memory, one entry per user/student/course (highest percent wins,
+ * latest lesson position wins), and written as one batched upsert every flush interval or as soon
+ * as the buffer reaches the flush threshold. Writes only happen on the flusher and scheduler
+ * threads; at the hard limit new keys are refused (the caller answers 503) instead of making the
+ * request wait for the DB. After a failed flush the threshold trigger backs off until the next
+ * scheduled flush, so a DB outage costs one failing batch per interval. The buffer is flushed
+ * again on shutdown, after the web server has stopped taking requests (server.shutdown=graceful).
+ */
+@Component
+public class ProgressIngestion {
+  private static final Logger log = LoggerFactory.getLogger(ProgressIngestion.class);
+
+  // student ownership is checked in the statement itself, so a bad studentId can't fail the batch
+  private static final String UPSERT = """
+      insert into course_progress (user_id, student_id, course_id, progress_percent, last_lesson_id,
+                                   last_position_seconds, completed_at, updated_at)
+      select ?::bigint, ?::bigint, ?::bigint, ?::smallint, ?::text, ?::int, ?::timestamptz, ?::timestamptz
+      where ?::bigint is null
+         or exists (select 1 from student_profiles sp where sp.id = ?::bigint and sp.parent_user_id = ?::bigint)
+      on conflict (user_id, course_id, (coalesce(student_id, 0))) do update set
+        progress_percent = greatest(course_progress.progress_percent, excluded.progress_percent),
+        last_lesson_id = case when excluded.updated_at >= course_progress.updated_at
+                              then excluded.last_lesson_id else course_progress.last_lesson_id end,
+        last_position_seconds = case when excluded.updated_at >= course_progress.updated_at
+                                     then excluded.last_position_seconds else course_progress.last_position_seconds end,
+        completed_at = coalesce(course_progress.completed_at, excluded.completed_at),
+        updated_at = greatest(course_progress.updated_at, excluded.updated_at)
+      """;
+
+  /** studentId 0 stands for "no student" so the key has no nulls. */
+  record Key(long userId, long studentId, long courseId) {}
+
+  record Progress(int percent, String lessonId, Integer positionSeconds, Instant at) {
+    Progress merge(Progress other) {
+      Progress latest = other.at.isAfter(at) ? other : this;
+      return new Progress(Math.max(percent, other.percent), latest.lessonId, latest.positionSeconds, latest.at);
+    }
+  }
+
+  private final JdbcTemplate jdbc;
+  private final int flushThreshold;
+  private final int maxBuffered;
+  private final ConcurrentHashMap<Key, Progress> buffer = new ConcurrentHashMap<>();
+  private final AtomicBoolean flushQueued = new AtomicBoolean();
+  private volatile boolean lastFlushFailed;
+  private final ExecutorService flusher = Executors.newSingleThreadExecutor(r -> {
+    Thread t = new Thread(r, "progress-flush");
+    t.setDaemon(true);
+    return t;
+  });
+
+  public ProgressIngestion(JdbcTemplate jdbc,
+                           @Value("${learn2code.progress.flush-threshold:500}") int flushThreshold,
+                           @Value("${learn2code.progress.max-buffered:10000}") int maxBuffered) {
+    this.jdbc = jdbc;
+    this.flushThreshold = flushThreshold;
+    this.maxBuffered = maxBuffered;
+  }
+
+  /**
+   * Buffers one event. Returns false when the buffer is full and the event adds a new key; events
+   * for keys already buffered are always merged since they don't grow the buffer.
+   */
+  public boolean record(long userId, Long studentId, long courseId, int percent, String lessonId, Integer positionSeconds) {
+    Key key = new Key(userId, studentId == null ? 0 : studentId, courseId);
+    if (buffer.size() >= maxBuffered && !buffer.containsKey(key)) {
+      return false;
+    }
+    buffer.merge(key, new Progress(percent, lessonId, positionSeconds, Instant.now()), Progress::merge);
+
+    if (buffer.size() >= flushThreshold && !lastFlushFailed && flushQueued.compareAndSet(false, true)) {
+      flusher.execute(() -> {
+        flushQueued.set(false);
+        flush();
+      });
+    }
+    return true;
+  }
+
+  /**
+   * Progress percent per course id; includes events that are still buffered. Without a studentId
+   * this is the parent's own progress (rows without a student), never a mix of their students'.
+   */
+  public Map<Long, Integer> percentByCourse(long userId, Long studentId, Collection<Long> courseIds) {
+    Map<Long, Integer> out = new HashMap<>();
+    if (studentId == null) {
+      jdbc.query("select course_id, progress_percent from course_progress where user_id = ? and student_id is null",
+              rs -> { out.put(rs.getLong(1), rs.getInt(2)); }, userId);
+    } else {
+      jdbc.query("select course_id, progress_percent from course_progress where user_id = ? and student_id = ?",
+              rs -> { out.put(rs.getLong(1), rs.getInt(2)); }, userId, studentId);
+    }
+    for (Long courseId : courseIds) {
+      Progress pending = buffer.get(new Key(userId, studentId == null ? 0 : studentId, courseId));
+      if (pending != null) out.merge(courseId, pending.percent(), Math::max);
+    }
+    return out;
+  }
+
+  @Scheduled(fixedDelayString = "${learn2code.progress.flush-ms:2000}")
+  public void scheduledFlush() {
+    flush();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    flusher.shutdown();
+    flush();
+  }
+
+  synchronized void flush() {
+    if (buffer.isEmpty()) return;
+    Map<Key, Progress> batch = new HashMap<>();
+    for (Key key : buffer.keySet()) {
+      Progress p = buffer.remove(key);
+      if (p != null) batch.put(key, p);
+    }
+    List<Map.Entry<Key, Progress>> entries = new ArrayList<>(batch.entrySet());
+    try {
+      jdbc.batchUpdate(UPSERT, entries.stream().map(ProgressIngestion::params).toList());
+      lastFlushFailed = false;
+    } catch (DataIntegrityViolationException ex) {
+      // e.g. a course deleted meanwhile: write row by row and drop only the rows that can't be stored
+      log.warn("Progress batch rejected ({}), retrying row by row", ex.getMostSpecificCause().getMessage());
+      lastFlushFailed = !flushOneByOne(entries);
+    } catch (DataAccessException ex) {
+      log.warn("Progress flush failed, keeping {} entries buffered: {}", entries.size(), ex.getMessage());
+      requeue(entries);
+      lastFlushFailed = true;
+    }
+  }
+
+  // returns false if the DB failed midway; the rest is requeued
+  private boolean flushOneByOne(List<Map.Entry<Key, Progress>> entries) {
+    for (int i = 0; i < entries.size(); i++) {
+      try {
+        jdbc.update(UPSERT, params(entries.get(i)));
+      } catch (DataIntegrityViolationException ex) {
+        log.warn("Dropping progress for {}: {}", entries.get(i).getKey(), ex.getMostSpecificCause().getMessage());
+      } catch (DataAccessException ex) {
+        requeue(entries.subList(i, entries.size()));
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void requeue(List<Map.Entry<Key, Progress>> entries) {
+    for (var e : entries) {
+      buffer.merge(e.getKey(), e.getValue(), Progress::merge);
+    }
+  }
+
+  private static Object[] params(Map.Entry<Key, Progress> e) {
+    Key k = e.getKey();
+    Progress p = e.getValue();
+    Long studentId = k.studentId() == 0 ? null : k.studentId();
+    Timestamp at = Timestamp.from(p.at());
+    return new Object[] {
+            k.userId(), studentId, k.courseId(), p.percent(), p.lessonId(), p.positionSeconds(),
+            p.percent() >= 100 ? at : null, at,
+            studentId, studentId, k.userId()
+    };
+  }
+}
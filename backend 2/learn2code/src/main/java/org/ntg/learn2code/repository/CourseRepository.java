@@ -1,9 +1,12 @@
 package org.ntg.learn2code.repository;
 
+import org.ntg.learn2code.cache.CacheNames;
 import org.ntg.learn2code.model.Course;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.List;
 
 public interface CourseRepository extends JpaRepository<Course, Long> {
+    @Cacheable(cacheNames = CacheNames.COURSES, key = "'active'")
     List<Course> findByIsActiveTrue();
 }
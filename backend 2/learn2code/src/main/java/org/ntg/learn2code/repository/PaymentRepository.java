@@ -3,15 +3,34 @@ package org.ntg.learn2code.repository;
 import org.ntg.learn2code.model.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
+// payments is range-partitioned by month on created_at (V5); queries bounded on createdAt
+// only touch the matching partitions.
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findByUserIdOrderByCreatedAtDesc(Long userId);
 
+    List<Payment> findByUserIdAndCreatedAtBetweenOrderByCreatedAtDesc(Long userId, Instant from, Instant to);
+
+    List<Payment> findByCreatedAtBetweenOrderByCreatedAtDesc(Instant from, Instant to);
+
+    // open upper bound: prunes just as well and doesn't depend on this node's clock
+    List<Payment> findByUserIdAndCreatedAtGreaterThanEqualOrderByCreatedAtDesc(Long userId, Instant from);
+
+    List<Payment> findByCreatedAtGreaterThanEqualOrderByCreatedAtDesc(Instant from);
+
     Optional<Payment> findByUserIdAndProviderAndProviderTxnId(
             Long userId,
             String provider,
             String providerTxnId
     );
+
+    Optional<Payment> findFirstByUserIdAndProviderAndProviderTxnIdAndCreatedAtAfter(
+            Long userId,
+            String provider,
+            String providerTxnId,
+            Instant createdAfter
+    );
 }
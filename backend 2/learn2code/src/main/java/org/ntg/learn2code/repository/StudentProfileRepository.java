@@ -7,4 +7,6 @@ import java.util.List;
 
 public interface StudentProfileRepository extends JpaRepository<StudentProfile, Long> {
     List<StudentProfile> findByParentUserIdOrderByCreatedAtDesc(Long parentUserId);
+
+    boolean existsByIdAndParentUserId(Long id, Long parentUserId);
 }
@@ -1,12 +1,16 @@
 // src/main/java/org/ntg/learn2code/repository/UserCourseRepository.java
 package org.ntg.learn2code.repository;
 
+import org.ntg.learn2code.cache.CacheNames;
 import org.ntg.learn2code.model.UserCourse;
 import org.ntg.learn2code.model.Course;
 import org.ntg.learn2code.dto.CourseDto;
+import org.ntg.learn2code.dto.StudentCourseDto;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 
 // src/main/java/org/ntg/learn2code/repository/UserCourseRepository.java
@@ -33,6 +37,16 @@ public interface UserCourseRepository extends JpaRepository<UserCourse, Long> {
   List<CourseDto> findCourseDtosByUserIdAndStudentId(@Param("userId") Long userId,
                                                      @Param("studentId") Long studentId);
 
+  // all purchases of a parent in one query, grouped/filtered by student on the caller side;
+  // cached per user and evicted through CacheInvalidationBus whenever enrollments change
+  @Cacheable(cacheNames = CacheNames.ENTITLEMENTS, key = "#p0.toString()")
+  @Query("""
+         select new org.ntg.learn2code.dto.StudentCourseDto(s.id, c.id, c.title, c.description, c.price)
+         from UserCourse uc join uc.course c left join uc.student s
+         where uc.user.id = :userId
+         """)
+  List<StudentCourseDto> findStudentCourseDtosByUserId(@Param("userId") Long userId);
+
   boolean existsByUserIdAndCourseId(Long userId, Long courseId);
 
   // NEW: idempotency per student
@@ -40,4 +54,13 @@ public interface UserCourseRepository extends JpaRepository<UserCourse, Long> {
 
   // NEW: for per-student counts
   long countByStudentId(Long studentId);
+
+  // per-student counts for several students at once: rows of {studentId, count}
+  @Query("""
+         select uc.student.id, count(uc)
+         from UserCourse uc
+         where uc.student.id in :studentIds
+         group by uc.student.id
+         """)
+  List<Object[]> countByStudentIds(@Param("studentIds") Collection<Long> studentIds);
 }
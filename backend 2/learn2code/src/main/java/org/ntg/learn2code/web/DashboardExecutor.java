@@ -0,0 +1,42 @@
+package org.ntg.learn2code.web;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+
+// Bounded pool for the parent dashboard fan-out. When it is saturated further sections are
+// rejected (and reported as unavailable) instead of queueing up behind slow requests.
+// Every section holds a JDBC connection, and a timed out section keeps it until the query ends,
+// so the pool never gets more than half of the Hikari pool; the rest stays for request threads.
+// Deliberately not an Executor bean: that would switch off Boot's applicationTaskExecutor.
+@Component
+public class DashboardExecutor implements DisposableBean {
+  private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+  public DashboardExecutor(@Value("${learn2code.dashboard.pool-size:0}") int poolSize,
+                           @Value("${learn2code.dashboard.queue-capacity:50}") int queueCapacity,
+                           @Value("${spring.datasource.hikari.maximum-pool-size:10}") int dbPoolSize) {
+    int maxThreads = Math.max(1, dbPoolSize / 2);
+    int threads = poolSize > 0 ? Math.min(poolSize, maxThreads) : maxThreads;
+    executor.setThreadNamePrefix("dashboard-");
+    executor.setCorePoolSize(threads);
+    executor.setMaxPoolSize(threads);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setAllowCoreThreadTimeOut(true);
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(5);
+    executor.initialize();
+  }
+
+  public Executor executor() {
+    return executor;
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,53 @@
+package org.ntg.learn2code.web;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Time from JVM launch until the first request has been served, published next to
+// Boot's application.started.time / application.ready.time (GET /actuator/metrics/application.first.request.time).
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class FirstRequestTimer extends OncePerRequestFilter {
+  private static final Logger log = LoggerFactory.getLogger(FirstRequestTimer.class);
+
+  private final AtomicLong firstRequestMillis = new AtomicLong(-1);
+  private volatile boolean recorded;
+
+  public FirstRequestTimer(MeterRegistry registry) {
+    TimeGauge.builder("application.first.request.time", firstRequestMillis, TimeUnit.MILLISECONDS,
+                    v -> v.get() < 0 ? Double.NaN : v.get())
+            .description("Time from JVM start until the first HTTP request completed")
+            .register(registry);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+          throws ServletException, IOException {
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      if (!recorded) {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        if (firstRequestMillis.compareAndSet(-1, uptime)) {
+          recorded = true;
+          log.info("First request served {} ms after JVM start", uptime);
+        }
+      }
+    }
+  }
+}
@@ -2,13 +2,21 @@
 package org.ntg.learn2code.web;
 
 import org.ntg.learn2code.dto.CourseDto;
+import org.ntg.learn2code.dto.MyCourseDto;
 import org.ntg.learn2code.model.Course;
+import org.ntg.learn2code.progress.ProgressIngestion;
 import org.ntg.learn2code.repository.CourseRepository;
+import org.ntg.learn2code.repository.StudentProfileRepository;
 import org.ntg.learn2code.repository.UserCourseRepository;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
@@ -17,10 +25,17 @@ public class MyCoursesController {
 
     private final UserCourseRepository userCourses;
     private final CourseRepository courses;
+    private final StudentProfileRepository studentProfiles;
+    private final ProgressIngestion progress;
 
-    public MyCoursesController(UserCourseRepository userCourses, CourseRepository courses) {
+    public record ProgressEvent(Long studentId, String lessonId, Integer positionSeconds, Integer progressPercent) {}
+
+    public MyCoursesController(UserCourseRepository userCourses, CourseRepository courses,
+                               StudentProfileRepository studentProfiles, ProgressIngestion progress) {
         this.userCourses = userCourses;
         this.courses = courses;
+        this.studentProfiles = studentProfiles;
+        this.progress = progress;
     }
 
     @GetMapping("/courses")
@@ -33,15 +48,57 @@ public class MyCoursesController {
         return out;
     }
 
-    // NEW: optional studentId query param
+    // NEW: optional studentId query param; progress without it is the parent's own
     // src/main/java/org/ntg/learn2code/web/MyCoursesController.java
     @GetMapping("/me/courses")
-    public List<CourseDto> myCourses(@RequestHeader("X-User-Id") Long userId,
-                                     @RequestParam(value = "studentId", required = false) Long studentId) {
-        if (studentId != null) {
-            return userCourses.findCourseDtosByUserIdAndStudentId(userId, studentId);
+    public List<MyCourseDto> myCourses(@RequestHeader("X-User-Id") Long userId,
+                                       @RequestParam(value = "studentId", required = false) Long studentId) {
+        // served from the cached entitlements; a studentId only narrows them down
+        List<CourseDto> owned = userCourses.findStudentCourseDtosByUserId(userId).stream()
+                .filter(c -> studentId == null || studentId.equals(c.studentId()))
+                .map(c -> new CourseDto(c.id(), c.title(), c.description(), c.price()))
+                .toList();
+        Map<Long, Integer> percent = progress.percentByCourse(userId, studentId,
+                owned.stream().map(CourseDto::id).toList());
+        // images come from the cached catalog; courses taken off sale fall back to the placeholder
+        Map<Long, String> images = new HashMap<>();
+        for (Course c : courses.findByIsActiveTrue()) {
+            if (c.getImageUrl() != null) images.put(c.getId(), c.getImageUrl());
+        }
+        List<MyCourseDto> out = new ArrayList<>(owned.size());
+        for (CourseDto c : owned) {
+            int p = percent.getOrDefault(c.id(), 0);
+            out.add(new MyCourseDto(c.id(), c.title(), c.description(), c.price(), images.get(c.id()), p, p >= 100));
+        }
+        return out;
+    }
+
+    // Lesson player heartbeats; buffered and written in batches, so this never waits on a write.
+    // 503 + Retry-After when the buffer is full (e.g. the DB is down), the player retries later.
+    @PostMapping("/me/courses/{courseId}/progress")
+    public ResponseEntity<?> recordProgress(@RequestHeader("X-User-Id") Long userId,
+                                            @PathVariable Long courseId,
+                                            @RequestBody ProgressEvent req) {
+        if (req == null || req.progressPercent() == null || req.progressPercent() < 0 || req.progressPercent() > 100) {
+            return ResponseEntity.badRequest().body(Map.of("message", "progressPercent must be between 0 and 100"));
+        }
+        // entitlements are cached per user, so accepted events don't hit the DB. A purchase made for the
+        // student proves the parent owns it; only rejected events look the student up to pick 400 vs 403.
+        Long studentId = req.studentId();
+        boolean owned = userCourses.findStudentCourseDtosByUserId(userId).stream()
+                .anyMatch(c -> c.id().equals(courseId) && (studentId == null || studentId.equals(c.studentId())));
+        if (!owned) {
+            if (studentId != null && !studentProfiles.existsByIdAndParentUserId(studentId, userId)) {
+                return ResponseEntity.badRequest().body(Map.of("message", "Invalid studentId"));
+            }
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", "Course not purchased"));
+        }
+        if (!progress.record(userId, req.studentId(), courseId, req.progressPercent(), req.lessonId(), req.positionSeconds())) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Map.of("message", "progress_busy"));
         }
-        return userCourses.findCourseDtosByUserId(userId);
+        return ResponseEntity.accepted().build();
     }
 
 }
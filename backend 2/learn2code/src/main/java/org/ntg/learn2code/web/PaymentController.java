@@ -1,11 +1,17 @@
 package org.ntg.learn2code.web;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.RequiredArgsConstructor;
+import org.ntg.learn2code.cache.CacheInvalidationBus;
+import org.ntg.learn2code.cache.CacheNames;
+import org.ntg.learn2code.dto.RawJsonDeserializer;
 import org.ntg.learn2code.model.Course;
 import org.ntg.learn2code.model.Payment;
 import org.ntg.learn2code.model.User;
 import org.ntg.learn2code.model.UserCourse;
 import org.ntg.learn2code.model.StudentProfile;
+import org.ntg.learn2code.payments.PaymentPartitionMaintenance;
+import org.ntg.learn2code.pricing.PricingEngine;
 import org.ntg.learn2code.repository.CourseRepository;
 import org.ntg.learn2code.repository.PaymentRepository;
 import org.ntg.learn2code.repository.UserCourseRepository;
@@ -37,8 +43,12 @@ public class PaymentController {
   private final CourseRepository courses;
   private final UserRepository users;
   private final StudentProfileRepository studentProfiles;
+  private final CacheInvalidationBus invalidations;
+  private final PaymentPartitionMaintenance partitions;
+  private final PricingEngine pricing;
 
   // ---------- DTOs ----------
+  // amount / taxAmount / totalAmount are ignored: the cart is priced server-side and the quote is charged
   public record CheckoutRequest(
           List<Long> courseIds,
           BigDecimal amount,
@@ -53,12 +63,15 @@ public class PaymentController {
           String cardLast4,
           String billingName,
           String billingEmail,
-          Map<String, Object> billingAddress,
-          Long studentId // assign purchase to a specific student (optional)
+          @JsonDeserialize(using = RawJsonDeserializer.class) String billingAddress, // any JSON, stored verbatim
+          Long studentId, // assign purchase to a specific student (optional)
+          String promoCode
   ) {}
 
   public record CheckoutResponse(Long paymentId, String receiptNumber) {}
 
+  public record QuoteRequest(List<Long> courseIds, String currency, String promoCode) {}
+
   // ---------- helpers ----------
   private static final SecureRandom RNG = new SecureRandom();
 
@@ -68,10 +81,14 @@ public class PaymentController {
     return "LC-" + ts + "-" + rnd.substring(0, 6);
   }
 
-  // ---------- NEW: GET /api/payments (list all) ----------
+  // ---------- NEW: GET /api/payments (list all, optional ?from=&to= ISO instants) ----------
   @GetMapping
-  public ResponseEntity<?> listAllPayments() {
-    return ResponseEntity.ok(payments.findAll());
+  public ResponseEntity<?> listAllPayments(@RequestParam(value = "from", required = false) Instant from,
+                                           @RequestParam(value = "to", required = false) Instant to) {
+    Instant since = from != null ? from : partitions.hotWindowStart();
+    return ResponseEntity.ok(to != null
+            ? payments.findByCreatedAtBetweenOrderByCreatedAtDesc(since, to)
+            : payments.findByCreatedAtGreaterThanEqualOrderByCreatedAtDesc(since));
   }
 
   // ---------- NEW: GET /api/payments/{id} (by id) ----------
@@ -82,6 +99,20 @@ public class PaymentController {
             .orElse(ResponseEntity.notFound().build());
   }
 
+  // ---------- POST /api/payments/quote ----------
+  // Prices a cart from the in-memory price table (no DB access); amounts are in minor units.
+  @PostMapping("/quote")
+  public ResponseEntity<?> quote(@RequestBody QuoteRequest req) {
+    if (req == null || req.courseIds() == null || req.courseIds().isEmpty()) {
+      return ResponseEntity.badRequest().body(Map.of("message", "No courses provided"));
+    }
+    try {
+      return ResponseEntity.ok(pricing.quote(req.courseIds(), req.currency(), req.promoCode()));
+    } catch (IllegalArgumentException ex) {
+      return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+    }
+  }
+
   // ---------- POST /api/payments/checkout ----------
   @PostMapping("/checkout")
   @Transactional
@@ -110,8 +141,8 @@ public class PaymentController {
 
     // --- Idempotency check ---
     if (req.provider() != null && req.providerTxnId() != null) {
-      Optional<Payment> existingOpt = payments.findByUserIdAndProviderAndProviderTxnId(
-              user.getId(), req.provider(), req.providerTxnId()
+      Optional<Payment> existingOpt = payments.findFirstByUserIdAndProviderAndProviderTxnIdAndCreatedAtAfter(
+              user.getId(), req.provider(), req.providerTxnId(), partitions.hotWindowStart() // everything not yet archived
       );
       if (existingOpt.isPresent()) {
         Payment existingPayment = existingOpt.get();
@@ -137,15 +168,22 @@ public class PaymentController {
             }
           }
         }
+        invalidations.invalidate(CacheNames.ENTITLEMENTS, user.getId());
         return ResponseEntity.ok(new CheckoutResponse(existingPayment.getId(), existingPayment.getReceiptNumber()));
       }
     }
 
-    // Defaults and safety
-    BigDecimal amount     = Optional.ofNullable(req.amount()).orElse(BigDecimal.ZERO);
-    BigDecimal taxAmount  = Optional.ofNullable(req.taxAmount()).orElse(BigDecimal.ZERO);
-    BigDecimal total      = Optional.ofNullable(req.totalAmount()).orElse(amount.add(taxAmount));
-    String currency       = Optional.ofNullable(req.currency()).orElse("USD");
+    // Server-side pricing: amount/taxAmount/totalAmount sent by the client are ignored, the quote is what gets charged
+    PricingEngine.Quote quote;
+    try {
+      quote = pricing.quote(req.courseIds(), req.currency(), req.promoCode());
+    } catch (IllegalArgumentException ex) {
+      return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+    }
+    BigDecimal amount     = PricingEngine.toMajor(quote.subtotalMinor() - quote.discountMinor());
+    BigDecimal taxAmount  = PricingEngine.toMajor(quote.taxMinor());
+    BigDecimal total      = PricingEngine.toMajor(quote.totalMinor());
+    String currency       = quote.currency();
     String status         = Optional.ofNullable(req.status()).orElse("completed");
 
     Payment p = new Payment();
@@ -202,15 +240,21 @@ public class PaymentController {
       }
     }
 
+    invalidations.invalidate(CacheNames.ENTITLEMENTS, user.getId());
     return ResponseEntity.ok(new CheckoutResponse(p.getId(), p.getReceiptNumber()));
   }
 
-  // ---------- GET /api/payments/user/{userId} ----------
+  // ---------- GET /api/payments/user/{userId} (optional ?from=&to= ISO instants) ----------
   @GetMapping("/user/{userId}")
-  public ResponseEntity<?> listUserPayments(@PathVariable Long userId) {
+  public ResponseEntity<?> listUserPayments(@PathVariable Long userId,
+                                            @RequestParam(value = "from", required = false) Instant from,
+                                            @RequestParam(value = "to", required = false) Instant to) {
     if (userId == null || users.findById(userId).isEmpty()) {
       return ResponseEntity.badRequest().body(Map.of("message", "Invalid user"));
     }
-    return ResponseEntity.ok(payments.findByUserIdOrderByCreatedAtDesc(userId));
+    Instant since = from != null ? from : partitions.hotWindowStart();
+    return ResponseEntity.ok(to != null
+            ? payments.findByUserIdAndCreatedAtBetweenOrderByCreatedAtDesc(userId, since, to)
+            : payments.findByUserIdAndCreatedAtGreaterThanEqualOrderByCreatedAtDesc(userId, since));
   }
 }
@@ -1,28 +1,70 @@
 // src/main/java/org/ntg/learn2code/web/StudentController.java
 package org.ntg.learn2code.web;
 
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.ntg.learn2code.dto.CourseDto;
+import org.ntg.learn2code.dto.PaymentSummaryDto;
+import org.ntg.learn2code.dto.StudentCourseDto;
+import org.ntg.learn2code.payments.PaymentPartitionMaintenance;
+import org.ntg.learn2code.repository.PaymentRepository;
 import org.ntg.learn2code.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.ntg.learn2code.model.StudentProfile;
 import org.ntg.learn2code.repository.StudentProfileRepository;
 import org.ntg.learn2code.repository.UserCourseRepository;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 // src/main/java/org/ntg/learn2code/web/StudentController.java
-@RequiredArgsConstructor
 @RestController
 @RequestMapping("/api/parents")
 @CrossOrigin(origins = {"http://localhost:3000"})
 public class StudentController {
+    private static final Logger log = LoggerFactory.getLogger(StudentController.class);
+
     private final UserRepository users;
     private final StudentProfileRepository students;
     private final UserCourseRepository userCourses;
+    private final PaymentRepository payments;
+    private final PaymentPartitionMaintenance partitions;
+    private final DashboardExecutor dashboardExecutor;
+    private final long sectionTimeoutMs;
+
+    public StudentController(UserRepository users, StudentProfileRepository students,
+                             UserCourseRepository userCourses, PaymentRepository payments,
+                             PaymentPartitionMaintenance partitions, DashboardExecutor dashboardExecutor,
+                             @Value("${learn2code.dashboard.section-timeout-ms:2000}") long sectionTimeoutMs) {
+        this.users = users;
+        this.students = students;
+        this.userCourses = userCourses;
+        this.payments = payments;
+        this.partitions = partitions;
+        this.dashboardExecutor = dashboardExecutor;
+        this.sectionTimeoutMs = sectionTimeoutMs;
+    }
+
+    private static final Set<String> DASHBOARD_SECTIONS = Set.of("students", "courses", "payments");
 
     public record StudentSummary(Long id, String name, Integer age, String avatarUrl, long coursesEnrolled) {}
     public record CreateStudentReq(String name, Integer age, String avatarUrl) {}
+    public record StudentCourses(Long studentId, List<CourseDto> courses) {}
+
+    // sections that were not requested are left out; failed or timed out ones are listed in "unavailable"
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record ParentDashboard(List<StudentSummary> students,
+                                  List<StudentCourses> courses,
+                                  List<PaymentSummaryDto> payments,
+                                  Map<String, String> unavailable) {}
 
     @GetMapping("/me/students")
     public List<StudentProfile> myStudents(@RequestHeader("X-User-Id") Long parentId) {
@@ -32,13 +74,82 @@ public class StudentController {
     // NEW: with per-student course counts
     @GetMapping("/me/students/with-stats")
     public List<StudentSummary> myStudentsWithStats(@RequestHeader("X-User-Id") Long parentId) {
-        return students.findByParentUserIdOrderByCreatedAtDesc(parentId)
-                .stream()
+        var list = students.findByParentUserIdOrderByCreatedAtDesc(parentId);
+        if (list.isEmpty()) return List.of();
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : userCourses.countByStudentIds(list.stream().map(StudentProfile::getId).toList())) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        return list.stream()
                 .map(s -> new StudentSummary(s.getId(), s.getName(), s.getAge(), s.getAvatarUrl(),
-                        userCourses.countByStudentId(s.getId())))
+                        counts.getOrDefault(s.getId(), 0L)))
+                .toList();
+    }
+
+    // Everything the parent dashboard shows in one round trip; the sections are read concurrently.
+    // ?fields=students,courses,payments selects sections (default: all).
+    @GetMapping("/me/dashboard")
+    public ResponseEntity<?> dashboard(@RequestHeader("X-User-Id") Long parentId,
+                                       @RequestParam(value = "fields", required = false) Set<String> fields) {
+        Set<String> wanted = (fields == null || fields.isEmpty()) ? DASHBOARD_SECTIONS : fields;
+        if (!DASHBOARD_SECTIONS.containsAll(wanted)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Unknown dashboard section"));
+        }
+
+        var studentsF = wanted.contains("students") ? section(() -> myStudentsWithStats(parentId)) : null;
+        var coursesF = wanted.contains("courses") ? section(() -> coursesByStudent(parentId)) : null;
+        var paymentsF = wanted.contains("payments")
+                ? section(() -> payments.findByUserIdAndCreatedAtGreaterThanEqualOrderByCreatedAtDesc(
+                        parentId, partitions.hotWindowStart()).stream().map(PaymentSummaryDto::of).toList())
+                : null;
+
+        Map<String, String> unavailable = new LinkedHashMap<>();
+        return ResponseEntity.ok(new ParentDashboard(
+                await("students", studentsF, unavailable),
+                await("courses", coursesF, unavailable),
+                await("payments", paymentsF, unavailable),
+                unavailable.isEmpty() ? null : unavailable));
+    }
+
+    private List<StudentCourses> coursesByStudent(Long parentId) {
+        Map<Long, List<CourseDto>> grouped = new LinkedHashMap<>();
+        for (StudentCourseDto sc : userCourses.findStudentCourseDtosByUserId(parentId)) {
+            grouped.computeIfAbsent(sc.studentId(), k -> new ArrayList<>())
+                    .add(new CourseDto(sc.id(), sc.title(), sc.description(), sc.price()));
+        }
+        return grouped.entrySet().stream()
+                .map(e -> new StudentCourses(e.getKey(), e.getValue()))
                 .toList();
     }
 
+    // orTimeout only stops the wait: a timed out read keeps its thread and DB connection until it
+    // finishes, which is why the pool is sized against the connection pool (DashboardExecutor)
+    private <T> CompletableFuture<T> section(Supplier<T> read) {
+        try {
+            return CompletableFuture.supplyAsync(read, dashboardExecutor.executor())
+                    .orTimeout(sectionTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    private static <T> T await(String name, CompletableFuture<T> section, Map<String, String> unavailable) {
+        if (section == null) return null;
+        try {
+            return section.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof TimeoutException) {
+                log.warn("Dashboard section {} timed out", name);
+                unavailable.put(name, "timeout");
+            } else {
+                log.warn("Dashboard section {} failed", name, cause);
+                unavailable.put(name, "error");
+            }
+            return null;
+        }
+    }
+
     @PostMapping("/me/students")
     public StudentProfile create(@RequestHeader("X-User-Id") Long parentId, @RequestBody CreateStudentReq req) {
         var parent = users.findById(parentId).orElseThrow();
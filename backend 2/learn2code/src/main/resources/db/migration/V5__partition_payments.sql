@@ -0,0 +1,93 @@
+-- V5: monthly range partitioning of payments on created_at (UTC months, partitions named payments_YYYY_MM).
+-- Future partitions are created by payments_ensure_partitions(), which the app calls on startup and daily;
+-- old partitions are detached and archived by PaymentPartitionMaintenance.
+
+-- A unique index on a partitioned table must include created_at, so receipt numbers are kept unique
+-- in a side table instead (this also keeps them unique against already archived months).
+CREATE TABLE IF NOT EXISTS payment_receipts (
+  receipt_number TEXT PRIMARY KEY
+);
+
+ALTER TABLE payments RENAME TO payments_legacy;
+ALTER INDEX payments_pkey RENAME TO payments_legacy_pkey;
+
+-- payments(id) alone is no longer unique-indexed, so user_courses.payment_id becomes a plain reference.
+ALTER TABLE user_courses DROP CONSTRAINT IF EXISTS user_courses_payment_id_fkey;
+
+CREATE TABLE payments (
+  id BIGINT NOT NULL DEFAULT nextval('payments_id_seq'),
+  user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+  student_id BIGINT REFERENCES student_profiles(id) ON DELETE SET NULL,
+  amount NUMERIC(10,2) NOT NULL,
+  currency CHAR(3) NOT NULL DEFAULT 'USD',
+  tax_amount NUMERIC(10,2) DEFAULT 0,
+  total_amount NUMERIC(10,2) NOT NULL,
+  method TEXT,
+  provider TEXT,
+  provider_txn_id TEXT,
+  status TEXT,
+  receipt_number TEXT,
+  card_brand TEXT,
+  card_last4 TEXT,
+  billing_name TEXT,
+  billing_email TEXT,
+  billing_address JSONB,
+  created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+  PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE payments_id_seq OWNED BY payments.id;
+
+-- Creates the monthly partitions from the month of from_ts up to months_ahead months past the current one.
+CREATE OR REPLACE FUNCTION payments_ensure_partitions(from_ts TIMESTAMPTZ, months_ahead INT)
+RETURNS INT LANGUAGE plpgsql AS $$
+DECLARE
+  m TIMESTAMP := date_trunc('month', from_ts AT TIME ZONE 'UTC');
+  last_month TIMESTAMP := date_trunc('month', now() AT TIME ZONE 'UTC') + make_interval(months => months_ahead);
+  part TEXT;
+  created INT := 0;
+BEGIN
+  WHILE m <= last_month LOOP
+    part := 'payments_' || to_char(m, 'YYYY_MM');
+    IF to_regclass(part) IS NULL THEN
+      EXECUTE format('CREATE TABLE %I PARTITION OF payments FOR VALUES FROM (%L) TO (%L)',
+                     part, m AT TIME ZONE 'UTC', (m + interval '1 month') AT TIME ZONE 'UTC');
+      created := created + 1;
+    END IF;
+    m := m + interval '1 month';
+  END LOOP;
+  RETURN created;
+END $$;
+
+SELECT payments_ensure_partitions(COALESCE((SELECT min(created_at) FROM payments_legacy), now()), 3);
+
+CREATE OR REPLACE FUNCTION payments_claim_receipt() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+  IF NEW.receipt_number IS NOT NULL THEN
+    INSERT INTO payment_receipts (receipt_number) VALUES (NEW.receipt_number);
+  END IF;
+  RETURN NEW;
+END $$;
+
+INSERT INTO payments (id, user_id, student_id, amount, currency, tax_amount, total_amount, method, provider,
+                      provider_txn_id, status, receipt_number, card_brand, card_last4, billing_name,
+                      billing_email, billing_address, created_at)
+SELECT id, user_id, student_id, amount, currency, tax_amount, total_amount, method, provider,
+       provider_txn_id, status, receipt_number, card_brand, card_last4, billing_name,
+       billing_email, billing_address, created_at
+FROM payments_legacy;
+
+INSERT INTO payment_receipts (receipt_number)
+SELECT receipt_number FROM payments_legacy WHERE receipt_number IS NOT NULL
+ON CONFLICT DO NOTHING;
+
+-- created after the copy so migrated rows don't go through it twice
+CREATE TRIGGER trg_payments_claim_receipt BEFORE INSERT ON payments
+  FOR EACH ROW EXECUTE FUNCTION payments_claim_receipt();
+
+DROP TABLE payments_legacy;
+
+-- Partitioned indexes: every monthly partition gets its own small copy.
+CREATE INDEX IF NOT EXISTS idx_payments_user_created ON payments (user_id, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_payments_provider_txn ON payments (user_id, provider, provider_txn_id);
+CREATE INDEX IF NOT EXISTS idx_payments_student ON payments (student_id);
@@ -0,0 +1,16 @@
+-- V6: per-course learning progress, written in batches by ProgressIngestion
+CREATE TABLE IF NOT EXISTS course_progress (
+  id BIGSERIAL PRIMARY KEY,
+  user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+  student_id BIGINT REFERENCES student_profiles(id) ON DELETE CASCADE,
+  course_id BIGINT NOT NULL REFERENCES courses(id) ON DELETE CASCADE,
+  progress_percent SMALLINT NOT NULL DEFAULT 0 CHECK (progress_percent BETWEEN 0 AND 100),
+  last_lesson_id TEXT,
+  last_position_seconds INT,
+  completed_at TIMESTAMPTZ,
+  updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- one row per user/course and student (NULL student = the parent's own progress)
+CREATE UNIQUE INDEX IF NOT EXISTS uk_course_progress
+  ON course_progress (user_id, course_id, (COALESCE(student_id, 0)));
@@ -0,0 +1,129 @@
+package org.ntg.learn2code.pricing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ntg.learn2code.model.Course;
+import org.ntg.learn2code.repository.CourseRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PricingEngineTest {
+  private CourseRepository courses;
+  private PricingProperties props;
+
+  @BeforeEach
+  void setUp() {
+    courses = mock(CourseRepository.class);
+    when(courses.findByIsActiveTrue()).thenReturn(List.of(
+            course(1L, "10.00", true),
+            course(2L, "20.00", true),
+            course(3L, "30.00", true),
+            course(4L, "0.50", true),
+            course(5L, "0.10", true),
+            course(6L, "99.00", false)));
+    props = new PricingProperties();
+    props.getTaxRateBps().put("USD", 1300);
+  }
+
+  @Test
+  void taxRoundsHalfUp() {
+    PricingEngine.Quote up = engine().quote(List.of(4L), "USD", null);
+    assertEquals(50, up.subtotalMinor());
+    assertEquals(7, up.taxMinor()); // 6.5 cents
+    assertEquals(57, up.totalMinor());
+
+    PricingEngine.Quote down = engine().quote(List.of(5L), "USD", null);
+    assertEquals(1, down.taxMinor()); // 1.3 cents
+    assertEquals(11, down.totalMinor());
+  }
+
+  @Test
+  void appliesHighestReachedBundleTier() {
+    props.getBundleDiscountBps().put(2, 1000);
+    props.getBundleDiscountBps().put(3, 1500);
+    PricingEngine engine = engine();
+
+    PricingEngine.Quote two = engine.quote(List.of(1L, 2L), "USD", null);
+    assertEquals(3000, two.subtotalMinor());
+    assertEquals(300, two.discountMinor());
+
+    PricingEngine.Quote three = engine.quote(List.of(1L, 2L, 3L), "USD", null);
+    assertEquals(6000, three.subtotalMinor());
+    assertEquals(900, three.discountMinor());
+    assertEquals(663, three.taxMinor());
+    assertEquals(5763, three.totalMinor());
+  }
+
+  @Test
+  void bundleAndPromoAddUpButAreCappedAtFullPrice() {
+    props.getBundleDiscountBps().put(2, 6000);
+    props.getPromoCodeBps().put("half", 5000);
+
+    PricingEngine.Quote q = engine().quote(List.of(1L, 2L), "usd", " Half ");
+    assertEquals(3000, q.subtotalMinor());
+    assertEquals(3000, q.discountMinor());
+    assertEquals(0, q.taxMinor());
+    assertEquals(0, q.totalMinor());
+  }
+
+  @Test
+  void countsDuplicateCoursesOnce() {
+    PricingEngine.Quote q = engine().quote(List.of(2L, 1L, 2L), null, null);
+    assertEquals(2, q.lines().size());
+    assertEquals(3000, q.subtotalMinor());
+    assertEquals("USD", q.currency());
+  }
+
+  @Test
+  void rejectsUnknownAndInactiveCourses() {
+    PricingEngine engine = engine();
+    assertEquals("unknown_course:42",
+            assertThrows(IllegalArgumentException.class, () -> engine.quote(List.of(1L, 42L), "USD", null)).getMessage());
+    assertEquals("unknown_course:6",
+            assertThrows(IllegalArgumentException.class, () -> engine.quote(List.of(6L), "USD", null)).getMessage());
+  }
+
+  @Test
+  void rejectsBadCurrencyPromoAndEmptyCart() {
+    PricingEngine engine = engine();
+    assertEquals("unsupported_currency",
+            assertThrows(IllegalArgumentException.class, () -> engine.quote(List.of(1L), "EUR", null)).getMessage());
+    assertEquals("invalid_promo_code",
+            assertThrows(IllegalArgumentException.class, () -> engine.quote(List.of(1L), "USD", "NOPE")).getMessage());
+    assertEquals("No courses provided",
+            assertThrows(IllegalArgumentException.class, () -> engine.quote(List.of(), "USD", null)).getMessage());
+  }
+
+  @Test
+  void rebuildsWhenTheCatalogCacheHandsOutANewList() {
+    PricingEngine engine = engine();
+    long firstVersion = engine.quote(List.of(1L), "USD", null).priceTableVersion();
+    assertEquals(firstVersion, engine.quote(List.of(1L), "USD", null).priceTableVersion());
+
+    when(courses.findByIsActiveTrue()).thenReturn(List.of(course(1L, "12.00", true)));
+    PricingEngine.Quote q = engine.quote(List.of(1L), "USD", null);
+    assertEquals(1200, q.subtotalMinor());
+    assertTrue(q.priceTableVersion() > firstVersion);
+  }
+
+  @Test
+  void convertsBetweenMajorAndMinorUnits() {
+    assertEquals(1000, PricingEngine.toMinor(new BigDecimal("10")));
+    assertEquals(1999, PricingEngine.toMinor(new BigDecimal("19.994")));
+    assertEquals(2000, PricingEngine.toMinor(new BigDecimal("19.995")));
+    assertEquals(new BigDecimal("19.99"), PricingEngine.toMajor(1999));
+  }
+
+  private PricingEngine engine() {
+    return new PricingEngine(courses, props);
+  }
+
+  private static Course course(Long id, String price, boolean active) {
+    return new Course(id, "Course " + id, null, new BigDecimal(price), null, active);
+  }
+}